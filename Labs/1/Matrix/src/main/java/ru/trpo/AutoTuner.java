@@ -0,0 +1,188 @@
+package ru.trpo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Random;
+
+public final class AutoTuner {
+
+    private static final int[] MULTIPLY_TILE_SIZES = {16, 32, 64, 128, 256};
+    private static final int[] TRANSPOSE_TILE_SIZES = {8, 16, 32, 64, 128};
+    private static final int[] PARALLEL_PROBE_SIZES = {32, 48, 64, 96, 128, 192, 256};
+    private static final int MULTIPLY_BENCH_SIZE = 256;
+    private static final int TRANSPOSE_BENCH_SIZE = 1024;
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    private AutoTuner() {
+    }
+
+    public static Path defaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".trpo-matrix");
+    }
+
+    // Loads the profile for this host from the default directory or tunes and saves it, then installs it into Matrix.
+    // Matrix uses TuningProfile.DEFAULT until the application calls this
+    public static TuningProfile loadOrTune() throws IOException {
+        return loadOrTune(defaultDirectory());
+    }
+
+    public static TuningProfile loadOrTune(Path directory) throws IOException {
+        Path file = profileFile(directory);
+        TuningProfile profile = load(file);
+        if (profile == null) {
+            profile = tune();
+            save(profile, file);
+        }
+        Matrix.setTuningProfile(profile);
+        return profile;
+    }
+
+    // Re-runs the benchmarks even if a saved profile exists
+    public static TuningProfile retune(Path directory) throws IOException {
+        TuningProfile profile = tune();
+        save(profile, profileFile(directory));
+        Matrix.setTuningProfile(profile);
+        return profile;
+    }
+
+    public static TuningProfile tune() {
+        Matrix a = randomMatrix(MULTIPLY_BENCH_SIZE, 1);
+        Matrix b = randomMatrix(MULTIPLY_BENCH_SIZE, 2);
+        int multiplyTile = MULTIPLY_TILE_SIZES[0];
+        long bestMultiply = Long.MAX_VALUE;
+        for (int tile : MULTIPLY_TILE_SIZES) {
+            TuningProfile candidate = new TuningProfile(tile, Long.MAX_VALUE, TuningProfile.DEFAULT.getTransposeTileSize());
+            long time = measure(() -> a.multiply(b, candidate));
+            if (time < bestMultiply) {
+                bestMultiply = time;
+                multiplyTile = tile;
+            }
+        }
+
+        long parallelThreshold = findParallelThreshold(multiplyTile);
+
+        Matrix t = randomMatrix(TRANSPOSE_BENCH_SIZE, 3);
+        int transposeTile = TRANSPOSE_TILE_SIZES[0];
+        long bestTranspose = Long.MAX_VALUE;
+        for (int tile : TRANSPOSE_TILE_SIZES) {
+            TuningProfile candidate = new TuningProfile(multiplyTile, parallelThreshold, tile);
+            long time = measure(() -> t.transpose(candidate));
+            if (time < bestTranspose) {
+                bestTranspose = time;
+                transposeTile = tile;
+            }
+        }
+        return new TuningProfile(multiplyTile, parallelThreshold, transposeTile);
+    }
+
+    static Path profileFile(Path directory) {
+        String cpu = cpuModel().replaceAll("[^A-Za-z0-9]+", "_");
+        int cores = Runtime.getRuntime().availableProcessors();
+        return directory.resolve("tuning-" + cpu + "-" + cores + ".properties");
+    }
+
+    static TuningProfile load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            return TuningProfile.fromProperties(properties);
+        } catch (IllegalArgumentException | CharacterCodingException e) {
+            // a damaged profile (bad escapes, invalid UTF-8, missing or bad values) is treated as missing and gets re-tuned
+            return null;
+        }
+    }
+
+    static void save(TuningProfile profile, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Properties properties = profile.toProperties();
+        properties.setProperty("cpu", cpuModel());
+        properties.setProperty("cores", Integer.toString(Runtime.getRuntime().availableProcessors()));
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Matrix tuning profile");
+        }
+    }
+
+    static String cpuModel() {
+        Path cpuInfo = Path.of("/proc/cpuinfo");
+        if (Files.isReadable(cpuInfo)) {
+            try (BufferedReader reader = Files.newBufferedReader(cpuInfo, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("model name")) {
+                        int colon = line.indexOf(':');
+                        if (colon >= 0) {
+                            return line.substring(colon + 1).trim();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // fall back to the environment below
+            }
+        }
+        String identifier = System.getenv("PROCESSOR_IDENTIFIER");
+        if (identifier != null && !identifier.isBlank()) {
+            return identifier.trim();
+        }
+        return System.getProperty("os.arch");
+    }
+
+    // Smallest probed n^3 from which parallel multiply is at least 10% faster for all bigger probes,
+    // if even the largest probe loses the crossover is assumed to lie at twice its size
+    private static long findParallelThreshold(int tile) {
+        if (Runtime.getRuntime().availableProcessors() < 2) {
+            // a single thread gains nothing from parallel streams at any size
+            return Long.MAX_VALUE;
+        }
+        TuningProfile sequential = new TuningProfile(tile, Long.MAX_VALUE, TuningProfile.DEFAULT.getTransposeTileSize());
+        TuningProfile parallel = new TuningProfile(tile, 0, TuningProfile.DEFAULT.getTransposeTileSize());
+        int largest = 2 * PARALLEL_PROBE_SIZES[PARALLEL_PROBE_SIZES.length - 1];
+        long threshold = (long) largest * largest * largest;
+        for (int i = PARALLEL_PROBE_SIZES.length - 1; i >= 0; i--) {
+            int n = PARALLEL_PROBE_SIZES[i];
+            Matrix a = randomMatrix(n, n);
+            Matrix b = randomMatrix(n, n + 1);
+            long sequentialTime = measure(() -> a.multiply(b, sequential));
+            long parallelTime = measure(() -> a.multiply(b, parallel));
+            if (parallelTime * 10 > sequentialTime * 9) {
+                break;
+            }
+            threshold = (long) n * n * n;
+        }
+        return threshold;
+    }
+
+    private static long measure(Runnable kernel) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            kernel.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            kernel.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static Matrix randomMatrix(int n, long seed) {
+        Random random = new Random(seed);
+        Matrix matrix = new Matrix(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix.set(i, j, random.nextDouble());
+            }
+        }
+        return matrix;
+    }
+}
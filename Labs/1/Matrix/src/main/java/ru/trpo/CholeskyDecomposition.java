@@ -0,0 +1,125 @@
+package ru.trpo;
+
+import java.util.stream.IntStream;
+
+public class CholeskyDecomposition {
+
+    private static final double EPS = 1e-7;
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final int n;
+    private final double[][] l;
+
+    // Factors the given array in place: on return its lower triangle holds L and the upper part is zeroed
+    CholeskyDecomposition(double[][] a) {
+        this.n = a.length;
+        this.l = a;
+        checkSymmetric();
+        factorize();
+    }
+
+    public Matrix getL() {
+        double[][] copy = new double[n][];
+        for (int i = 0; i < n; i++) {
+            copy[i] = l[i].clone();
+        }
+        return new Matrix(copy);
+    }
+
+    public double determinant() {
+        double result = 1.0;
+        for (int i = 0; i < n; i++) {
+            result *= l[i][i];
+        }
+        return result * result;
+    }
+
+    public Matrix solve(Matrix b) {
+        if (b == null) {
+            throw new IllegalArgumentException("Other matrix is null");
+        }
+        if (b.getRows() != n) {
+            throw new IllegalArgumentException("The number of rows of the right-hand side must be " + n);
+        }
+        int m = b.getCols();
+        double[][] x = new double[n][m];
+        for (int i = 0; i < n; i++) {
+            b.getRow(i, x[i], 0);
+        }
+        // L y = b
+        for (int i = 0; i < n; i++) {
+            double[] xi = x[i];
+            for (int k = 0; k < i; k++) {
+                double lik = l[i][k];
+                double[] xk = x[k];
+                for (int j = 0; j < m; j++) {
+                    xi[j] -= lik * xk[j];
+                }
+            }
+            double d = l[i][i];
+            for (int j = 0; j < m; j++) {
+                xi[j] /= d;
+            }
+        }
+        // L^T x = y
+        for (int i = n - 1; i >= 0; i--) {
+            double[] xi = x[i];
+            for (int k = i + 1; k < n; k++) {
+                double lki = l[k][i];
+                double[] xk = x[k];
+                for (int j = 0; j < m; j++) {
+                    xi[j] -= lki * xk[j];
+                }
+            }
+            double d = l[i][i];
+            for (int j = 0; j < m; j++) {
+                xi[j] /= d;
+            }
+        }
+        return new Matrix(x);
+    }
+
+    private void checkSymmetric() {
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double scale = Math.max(1.0, Math.max(Math.abs(l[i][j]), Math.abs(l[j][i])));
+                if (Math.abs(l[i][j] - l[j][i]) > EPS * scale) {
+                    throw new IllegalStateException("The matrix is not symmetric");
+                }
+            }
+        }
+    }
+
+    private void factorize() {
+        for (int j = 0; j < n; j++) {
+            double[] lj = l[j];
+            double d = lj[j];
+            for (int k = 0; k < j; k++) {
+                d -= lj[k] * lj[k];
+            }
+            if (!(d > 0.0)) {
+                throw new IllegalStateException("The matrix is not positive-definite");
+            }
+            double diag = Math.sqrt(d);
+            lj[j] = diag;
+            final int col = j;
+            IntStream rows = IntStream.range(j + 1, n);
+            if (n - j >= PARALLEL_THRESHOLD) {
+                rows = rows.parallel();
+            }
+            rows.forEach(i -> {
+                double[] li = l[i];
+                double sum = li[col];
+                for (int k = 0; k < col; k++) {
+                    sum -= li[k] * lj[k];
+                }
+                li[col] = sum / diag;
+            });
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                l[i][j] = 0.0;
+            }
+        }
+    }
+}
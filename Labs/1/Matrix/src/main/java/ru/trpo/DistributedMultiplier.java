@@ -0,0 +1,271 @@
+package ru.trpo;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DistributedMultiplier {
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final int DEFAULT_TIMEOUT_MILLIS = 30_000;
+    private static final long POLL_MILLIS = 50;
+    private static final int MAX_CONNECT_FAILURES = 3;
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+
+    private final List<InetSocketAddress> workers;
+    private final int blockSize;
+    private final int maxAttempts;
+    private final int timeoutMillis;
+
+    public DistributedMultiplier(List<InetSocketAddress> workers, int blockSize) {
+        this(workers, blockSize, DEFAULT_MAX_ATTEMPTS, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public DistributedMultiplier(List<InetSocketAddress> workers, int blockSize, int maxAttempts, int timeoutMillis) {
+        if (workers == null || workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+        // 0 would mean waiting forever for a stuck worker
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        this.workers = List.copyOf(workers);
+        this.blockSize = blockSize;
+        this.maxAttempts = maxAttempts;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // C = A B, where every output block C_ij = A_i* B_*j is computed by some worker from the row panel of A
+    // and the column panel of B, so each block comes back once and the client only copies it into place
+    public Matrix multiply(Matrix a, Matrix b) throws IOException {
+        if (a == null || b == null) {
+            throw new IllegalArgumentException("Other matrix is null");
+        }
+        if (a.getCols() != b.getRows()) {
+            throw new IllegalArgumentException("The number of columns of the first matrix is not equal to the number of rows of the second matrix");
+        }
+        Job job = new Job(a, b);
+        List<Thread> threads = new ArrayList<>();
+        for (InetSocketAddress worker : workers) {
+            Thread thread = new Thread(() -> job.run(worker), "matrix-client-" + worker);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            job.fail(new IOException("Interrupted while waiting for workers", e));
+            Thread.currentThread().interrupt();
+        }
+        if (job.failure != null) {
+            throw job.failure;
+        }
+        if (job.remaining.get() > 0) {
+            throw new IOException("All workers are lost, " + job.remaining.get() + " blocks are not computed");
+        }
+        return new Matrix(job.result);
+    }
+
+    private int blockCount(int size) {
+        return (size + blockSize - 1) / blockSize;
+    }
+
+    // Row panels A_i* as binary matrices, written straight from the rows of A
+    private byte[][] encodeRowPanels(Matrix matrix) throws IOException {
+        int panels = blockCount(matrix.getRows());
+        byte[][] encoded = new byte[panels][];
+        for (int p = 0; p < panels; p++) {
+            int row = p * blockSize;
+            int height = Math.min(blockSize, matrix.getRows() - row);
+            encoded[p] = encodePanel(matrix, row, height, 0, matrix.getCols());
+        }
+        return encoded;
+    }
+
+    // Column panels B_*j as binary matrices
+    private byte[][] encodeColumnPanels(Matrix matrix) throws IOException {
+        int panels = blockCount(matrix.getCols());
+        byte[][] encoded = new byte[panels][];
+        for (int p = 0; p < panels; p++) {
+            int col = p * blockSize;
+            int width = Math.min(blockSize, matrix.getCols() - col);
+            encoded[p] = encodePanel(matrix, 0, matrix.getRows(), col, width);
+        }
+        return encoded;
+    }
+
+    // Same layout as Matrix.saveToBinary(), without copying the panel into a Matrix first
+    private static byte[] encodePanel(Matrix matrix, int row, int height, int col, int width) throws IOException {
+        long size = 8 + 8L * height * width;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A " + height + "x" + width + " panel doesn't fit into one message");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) size);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(height);
+        out.writeInt(width);
+        double[] buffer = new double[matrix.getCols()];
+        for (int i = row; i < row + height; i++) {
+            matrix.getRow(i, buffer, 0);
+            for (int j = col; j < col + width; j++) {
+                out.writeDouble(buffer[j]);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static final class BlockTask {
+
+        private final int bi;
+        private final int bj;
+        private int attempts;
+
+        private BlockTask(int bi, int bj) {
+            this.bi = bi;
+            this.bj = bj;
+        }
+    }
+
+    private final class Job {
+
+        private final byte[][] rowPanels;
+        private final byte[][] columnPanels;
+        private final double[][] result;
+        private final LinkedBlockingQueue<BlockTask> pending = new LinkedBlockingQueue<>();
+        private final AtomicInteger remaining = new AtomicInteger();
+        private volatile IOException failure;
+
+        private Job(Matrix a, Matrix b) throws IOException {
+            this.rowPanels = encodeRowPanels(a);
+            this.columnPanels = encodeColumnPanels(b);
+            this.result = new double[a.getRows()][b.getCols()];
+            for (int bi = 0; bi < rowPanels.length; bi++) {
+                for (int bj = 0; bj < columnPanels.length; bj++) {
+                    pending.add(new BlockTask(bi, bj));
+                }
+            }
+            remaining.set(pending.size());
+        }
+
+        // Feeds blocks to one worker until the job is done. A broken connection puts the block in flight back into
+        // the queue and the worker is reconnected with a growing pause, it is dropped after repeated connect failures
+        private void run(InetSocketAddress address) {
+            int connectFailures = 0;
+            long backoff = INITIAL_BACKOFF_MILLIS;
+            try {
+                while (failure == null && remaining.get() > 0) {
+                    try (Socket socket = new Socket()) {
+                        try {
+                            socket.connect(address, timeoutMillis);
+                        } catch (IOException e) {
+                            connectFailures++;
+                            if (connectFailures >= MAX_CONNECT_FAILURES) {
+                                return;
+                            }
+                            Thread.sleep(backoff);
+                            backoff = Math.min(2 * backoff, MAX_BACKOFF_MILLIS);
+                            continue;
+                        }
+                        connectFailures = 0;
+                        if (serve(socket, address)) {
+                            return;
+                        }
+                    } catch (IOException e) {
+                        // closing a broken socket, nothing to recover
+                    }
+                    Thread.sleep(backoff);
+                    backoff = Math.min(2 * backoff, MAX_BACKOFF_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Returns false when the connection broke and has to be re-established
+        private boolean serve(Socket socket, InetSocketAddress address) throws InterruptedException {
+            BlockTask task = null;
+            try {
+                socket.setSoTimeout(timeoutMillis);
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                while (failure == null && remaining.get() > 0) {
+                    task = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (task == null) {
+                        continue;
+                    }
+                    out.writeInt(MatrixWorker.MULTIPLY);
+                    out.write(rowPanels[task.bi]);
+                    out.write(columnPanels[task.bj]);
+                    out.flush();
+                    int status = in.readInt();
+                    if (status != MatrixWorker.OK) {
+                        fail(new IOException("Worker " + address + " rejected block: " + in.readUTF()));
+                        return true;
+                    }
+                    store(task, Matrix.loadFromBinary(in));
+                    task = null;
+                }
+                out.writeInt(MatrixWorker.CLOSE);
+                out.flush();
+                return true;
+            } catch (IOException | IllegalArgumentException e) {
+                if (task != null) {
+                    retry(task, e);
+                }
+                return failure != null;
+            }
+        }
+
+        // Every block is written by exactly one task, the joins in multiply() publish the result
+        private void store(BlockTask task, Matrix block) {
+            int row = task.bi * blockSize;
+            int col = task.bj * blockSize;
+            int height = Math.min(blockSize, result.length - row);
+            int width = Math.min(blockSize, result[0].length - col);
+            if (block.getRows() != height || block.getCols() != width) {
+                throw new IllegalArgumentException("Worker returned a " + block.getRows() + "x" + block.getCols() + " block instead of " + height + "x" + width);
+            }
+            for (int i = 0; i < height; i++) {
+                block.getRow(i, result[row + i], col);
+            }
+            remaining.decrementAndGet();
+        }
+
+        private void retry(BlockTask task, Exception cause) {
+            task.attempts++;
+            if (task.attempts >= maxAttempts) {
+                fail(new IOException("Block (" + task.bi + ", " + task.bj + ") failed after " + task.attempts + " attempts", cause));
+            } else {
+                pending.add(task);
+            }
+        }
+
+        private synchronized void fail(IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+}
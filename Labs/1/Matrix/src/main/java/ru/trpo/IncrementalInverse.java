@@ -0,0 +1,396 @@
+package ru.trpo;
+
+public class IncrementalInverse {
+
+    // Relative size below which a pivot or an update denominator is treated as zero
+    private static final double RELATIVE_EPS = 1e-10;
+    private static final int DEFAULT_REFACTOR_INTERVAL = 32;
+
+    private final int n;
+    private final int refactorInterval;
+    private final double[][] matrix;
+    private double[][] inverse;
+    // det(A) = determinantSign * exp(logAbsDeterminant), so it can't overflow or underflow
+    private double logAbsDeterminant;
+    private int determinantSign;
+    private int updatesSinceRefactor;
+
+    public IncrementalInverse(Matrix source) {
+        this(source, DEFAULT_REFACTOR_INTERVAL);
+    }
+
+    public IncrementalInverse(Matrix source, int refactorInterval) {
+        if (source == null) {
+            throw new IllegalArgumentException("Other matrix is null");
+        }
+        if (source.getRows() != source.getCols()) {
+            throw new IllegalStateException("The matrix is not square");
+        }
+        if (refactorInterval < 1) {
+            throw new IllegalArgumentException("Refactor interval must be positive");
+        }
+        this.n = source.getRows();
+        this.refactorInterval = refactorInterval;
+        this.matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            source.getRow(i, matrix[i], 0);
+        }
+        refactorize();
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public double get(int i, int j) {
+        checkIndex(i, j);
+        return matrix[i][j];
+    }
+
+    public Matrix matrix() {
+        return new Matrix(copyOf(matrix));
+    }
+
+    public Matrix inverse() {
+        return new Matrix(copyOf(inverse));
+    }
+
+    public double determinant() {
+        return determinantSign * Math.exp(logAbsDeterminant);
+    }
+
+    public double logAbsDeterminant() {
+        return logAbsDeterminant;
+    }
+
+    public int determinantSign() {
+        return determinantSign;
+    }
+
+    public void set(int i, int j, double value) {
+        checkIndex(i, j);
+        double delta = value - matrix[i][j];
+        if (delta == 0.0) {
+            return;
+        }
+        // A + delta * e_i * e_j^T
+        double denom = 1.0 + delta * inverse[j][i];
+        checkUpdate(denom);
+        double[] bu = new double[n];
+        double[] vb = new double[n];
+        for (int k = 0; k < n; k++) {
+            bu[k] = delta * inverse[k][i];
+            vb[k] = inverse[j][k];
+        }
+        matrix[i][j] = value;
+        applyRankOne(bu, vb, denom);
+    }
+
+    public void setRow(int i, double[] row) {
+        checkIndex(i, 0);
+        checkLength(row);
+        double[] v = new double[n];
+        for (int k = 0; k < n; k++) {
+            v[k] = row[k] - matrix[i][k];
+        }
+        // A + e_i * v^T
+        double[] bu = new double[n];
+        for (int k = 0; k < n; k++) {
+            bu[k] = inverse[k][i];
+        }
+        double[] vb = rowTimesInverse(v);
+        double denom = 1.0 + vb[i];
+        checkUpdate(denom);
+        System.arraycopy(row, 0, matrix[i], 0, n);
+        applyRankOne(bu, vb, denom);
+    }
+
+    public void setColumn(int j, double[] column) {
+        checkIndex(0, j);
+        checkLength(column);
+        double[] u = new double[n];
+        for (int k = 0; k < n; k++) {
+            u[k] = column[k] - matrix[k][j];
+        }
+        // A + u * e_j^T
+        double[] bu = inverseTimesColumn(u);
+        double[] vb = new double[n];
+        System.arraycopy(inverse[j], 0, vb, 0, n);
+        double denom = 1.0 + bu[j];
+        checkUpdate(denom);
+        for (int k = 0; k < n; k++) {
+            matrix[k][j] = column[k];
+        }
+        applyRankOne(bu, vb, denom);
+    }
+
+    public void rankOneUpdate(double[] u, double[] v) {
+        checkLength(u);
+        checkLength(v);
+        double[] bu = inverseTimesColumn(u);
+        double[] vb = rowTimesInverse(v);
+        double denom = 1.0;
+        for (int k = 0; k < n; k++) {
+            denom += v[k] * bu[k];
+        }
+        checkUpdate(denom);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] += u[i] * v[j];
+            }
+        }
+        applyRankOne(bu, vb, denom);
+    }
+
+    public void rankUpdate(Matrix u, Matrix v) {
+        if (u == null || v == null) {
+            throw new IllegalArgumentException("Other matrix is null");
+        }
+        int k = u.getCols();
+        if (u.getRows() != n || v.getRows() != n || v.getCols() != k) {
+            throw new IllegalArgumentException("Update factors must be " + n + "xk matrices of the same size");
+        }
+        double[][] uData = new double[n][k];
+        double[][] vData = new double[n][k];
+        for (int i = 0; i < n; i++) {
+            u.getRow(i, uData[i], 0);
+            v.getRow(i, vData[i], 0);
+        }
+        // Woodbury: (A + U V^T)^-1 = B - B U (I + V^T B U)^-1 V^T B
+        double[][] bu = new double[n][k];
+        for (int i = 0; i < n; i++) {
+            for (int p = 0; p < n; p++) {
+                double b = inverse[i][p];
+                for (int j = 0; j < k; j++) {
+                    bu[i][j] += b * uData[p][j];
+                }
+            }
+        }
+        double[][] vtb = new double[k][n];
+        for (int p = 0; p < n; p++) {
+            for (int j = 0; j < k; j++) {
+                double vpj = vData[p][j];
+                for (int c = 0; c < n; c++) {
+                    vtb[j][c] += vpj * inverse[p][c];
+                }
+            }
+        }
+        double[][] capacitance = new double[k][k];
+        for (int i = 0; i < k; i++) {
+            capacitance[i][i] = 1.0;
+            for (int p = 0; p < n; p++) {
+                double vpi = vData[p][i];
+                for (int j = 0; j < k; j++) {
+                    capacitance[i][j] += vpi * bu[p][j];
+                }
+            }
+        }
+        Determinant capacitanceDet = invertInPlace(capacitance);
+        if (capacitanceDet == null) {
+            throw new IllegalStateException("Update makes the matrix singular");
+        }
+        double[][] correction = new double[k][n];
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < k; j++) {
+                double c = capacitance[i][j];
+                for (int col = 0; col < n; col++) {
+                    correction[i][col] += c * vtb[j][col];
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < k; j++) {
+                double b = bu[i][j];
+                for (int col = 0; col < n; col++) {
+                    inverse[i][col] -= b * correction[j][col];
+                }
+            }
+            for (int col = 0; col < n; col++) {
+                double sum = 0.0;
+                for (int j = 0; j < k; j++) {
+                    sum += uData[i][j] * vData[col][j];
+                }
+                matrix[i][col] += sum;
+            }
+        }
+        logAbsDeterminant += capacitanceDet.logAbs;
+        determinantSign *= capacitanceDet.sign;
+        afterUpdate();
+    }
+
+    public void refactorize() {
+        if (!recompute()) {
+            throw new IllegalStateException("The matrix is singular");
+        }
+    }
+
+    private boolean recompute() {
+        this.updatesSinceRefactor = 0;
+        double[][] work = copyOf(matrix);
+        Determinant det = invertInPlace(work);
+        if (det == null) {
+            return false;
+        }
+        this.inverse = work;
+        this.logAbsDeterminant = det.logAbs;
+        this.determinantSign = det.sign;
+        return true;
+    }
+
+    private void applyRankOne(double[] bu, double[] vb, double denom) {
+        for (int i = 0; i < n; i++) {
+            double factor = bu[i] / denom;
+            if (factor == 0.0) {
+                continue;
+            }
+            for (int j = 0; j < n; j++) {
+                inverse[i][j] -= factor * vb[j];
+            }
+        }
+        logAbsDeterminant += Math.log(Math.abs(denom));
+        if (denom < 0) {
+            determinantSign = -determinantSign;
+        }
+        afterUpdate();
+    }
+
+    private void afterUpdate() {
+        updatesSinceRefactor++;
+        // the update itself is already validated, a failed refresh keeps the incrementally updated state
+        if (updatesSinceRefactor >= refactorInterval) {
+            recompute();
+        }
+    }
+
+    private double[] inverseTimesColumn(double[] u) {
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = 0.0;
+            for (int k = 0; k < n; k++) {
+                sum += inverse[i][k] * u[k];
+            }
+            result[i] = sum;
+        }
+        return result;
+    }
+
+    private double[] rowTimesInverse(double[] v) {
+        double[] result = new double[n];
+        for (int k = 0; k < n; k++) {
+            double vk = v[k];
+            if (vk == 0.0) {
+                continue;
+            }
+            for (int j = 0; j < n; j++) {
+                result[j] += vk * inverse[k][j];
+            }
+        }
+        return result;
+    }
+
+    // Gauss-Jordan with partial pivoting, returns the determinant or null if the matrix is singular.
+    // A pivot counts as zero when it is negligible next to the largest entry of its original row
+    private static Determinant invertInPlace(double[][] a) {
+        int size = a.length;
+        int[] columnOf = new int[size];
+        double[] rowScale = new double[size];
+        for (int i = 0; i < size; i++) {
+            columnOf[i] = i;
+            for (int j = 0; j < size; j++) {
+                rowScale[i] = Math.max(rowScale[i], Math.abs(a[i][j]));
+            }
+        }
+        Determinant det = new Determinant();
+        for (int c = 0; c < size; c++) {
+            int pivot = c;
+            for (int r = c + 1; r < size; r++) {
+                if (Math.abs(a[r][c]) > Math.abs(a[pivot][c])) {
+                    pivot = r;
+                }
+            }
+            if (!(Math.abs(a[pivot][c]) > RELATIVE_EPS * rowScale[pivot])) {
+                return null;
+            }
+            if (pivot != c) {
+                double[] tmp = a[pivot];
+                a[pivot] = a[c];
+                a[c] = tmp;
+                int t = columnOf[pivot];
+                columnOf[pivot] = columnOf[c];
+                columnOf[c] = t;
+                double scale = rowScale[pivot];
+                rowScale[pivot] = rowScale[c];
+                rowScale[c] = scale;
+                det.sign = -det.sign;
+            }
+            double p = a[c][c];
+            det.logAbs += Math.log(Math.abs(p));
+            if (p < 0) {
+                det.sign = -det.sign;
+            }
+            a[c][c] = 1.0;
+            for (int j = 0; j < size; j++) {
+                a[c][j] /= p;
+            }
+            for (int r = 0; r < size; r++) {
+                if (r == c) {
+                    continue;
+                }
+                double f = a[r][c];
+                if (f == 0.0) {
+                    continue;
+                }
+                a[r][c] = 0.0;
+                for (int j = 0; j < size; j++) {
+                    a[r][j] -= f * a[c][j];
+                }
+            }
+        }
+        // row swaps of A become column swaps of A^-1
+        double[][] result = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                result[i][columnOf[j]] = a[i][j];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            a[i] = result[i];
+        }
+        return det;
+    }
+
+    private static final class Determinant {
+
+        private double logAbs;
+        private int sign = 1;
+    }
+
+    private static double[][] copyOf(double[][] source) {
+        double[][] result = new double[source.length][];
+        for (int i = 0; i < source.length; i++) {
+            result[i] = source[i].clone();
+        }
+        return result;
+    }
+
+    // Rejects an update before any state changes. denom = 1 + t is dimensionless, it is treated as zero
+    // when it is negligible next to the terms it was summed from
+    private void checkUpdate(double denom) {
+        double scale = Math.max(1.0, Math.abs(denom - 1.0));
+        if (!(Math.abs(denom) > RELATIVE_EPS * scale)) {
+            throw new IllegalStateException("Update makes the matrix singular");
+        }
+    }
+
+    private void checkLength(double[] vector) {
+        if (vector == null || vector.length != n) {
+            throw new IllegalArgumentException("Vector length must be " + n);
+        }
+    }
+
+    private void checkIndex(int i, int j) {
+        if (i < 0 || j < 0 || i >= n || j >= n) {
+            throw new IndexOutOfBoundsException("Matrix index out of range: (" + i + ", " + j + ") for size (" + n + ", " + n + ")");
+        }
+    }
+}
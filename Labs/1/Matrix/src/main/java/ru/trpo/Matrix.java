@@ -9,19 +9,34 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
 
 public class Matrix {
 
     private static final double EPS = 1e-7;
+    private static final int PARALLEL_TASKS_PER_THREAD = 4;
+
+    private static volatile TuningProfile tuningProfile = TuningProfile.DEFAULT;
 
     private double[][] data;
     private int rows;
     private int cols;
+    private int colCapacity;
+    // true while data is the caller's array passed to Matrix(double[][]), it is copied before the first storage change
+    private boolean sharedData;
 
     public Matrix() {
         this.rows = 0;
         this.cols = 0;
         this.data = new double[0][0];
+        this.colCapacity = 0;
     }
 
     public Matrix(int rows, int cols) {
@@ -30,6 +45,7 @@ public class Matrix {
         }
         this.rows = rows;
         this.cols = cols;
+        this.colCapacity = cols;
         this.data = new double[rows][cols];
     }
 
@@ -50,19 +66,33 @@ public class Matrix {
         data = newData.clone();
         this.rows = newRows;
         this.cols = newCols;
+        this.colCapacity = newCols;
         this.data = newData;
+        this.sharedData = true;
     }
 
     public Matrix(Matrix other) {
         checkOnExist(other);
         this.rows = other.rows;
         this.cols = other.cols;
+        this.colCapacity = other.cols;
         this.data = new double[rows][cols];
         for (int i = 0; i < rows; i++) {
             System.arraycopy(other.data[i], 0, this.data[i], 0, cols);
         }
     }
 
+    public static TuningProfile getTuningProfile() {
+        return tuningProfile;
+    }
+
+    public static void setTuningProfile(TuningProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Tuning profile is null");
+        }
+        tuningProfile = profile;
+    }
+
     public Matrix copy() {
         return new Matrix(this);
     }
@@ -82,13 +112,16 @@ public class Matrix {
         if (newRows == this.rows) {
             return;
         }
-        double[][] newData = new double[newRows][this.cols];
-        int copyRows = Math.min(this.rows, newRows);
-        for (int i = 0; i < copyRows; i++) {
-            System.arraycopy(this.data[i], 0, newData[i], 0, this.cols);
+        detachData();
+        if (newRows < this.rows) {
+            Arrays.fill(this.data, newRows, this.rows, null);
+        } else {
+            growRows(newRows);
+            for (int i = this.rows; i < newRows; i++) {
+                this.data[i] = new double[colCapacity];
+            }
         }
         this.rows = newRows;
-        this.data = newData;
     }
 
     public void resizeCols(int newCols) {
@@ -98,13 +131,82 @@ public class Matrix {
         if (newCols == this.cols) {
             return;
         }
-        double[][] newData = new double[this.rows][newCols];
-        int copyCols = Math.min(this.cols, newCols);
-        for (int i = 0; i < this.rows; i++) {
-            System.arraycopy(this.data[i], 0, newData[i], 0, copyCols);
+        detachData();
+        if (newCols < this.cols) {
+            for (int i = 0; i < this.rows; i++) {
+                Arrays.fill(this.data[i], newCols, this.cols, 0.0);
+            }
+        } else {
+            growCols(newCols);
         }
         this.cols = newCols;
-        this.data = newData;
+    }
+
+    public void appendRow(double[] row) {
+        if (row == null) {
+            throw new IllegalArgumentException("Row can't be null");
+        }
+        if (this.rows == 0 && this.cols == 0) {
+            if (row.length < 1) {
+                throw new IllegalArgumentException("Invalid input, matrices must have a positive size");
+            }
+            growCols(row.length);
+            this.cols = row.length;
+        } else if (row.length != this.cols) {
+            throw new IllegalArgumentException("Row length must be equal to the number of columns");
+        }
+        detachData();
+        growRows(this.rows + 1);
+        double[] newRow = new double[colCapacity];
+        System.arraycopy(row, 0, newRow, 0, this.cols);
+        this.data[this.rows] = newRow;
+        this.rows++;
+    }
+
+    public void appendColumn(double[] column) {
+        if (column == null) {
+            throw new IllegalArgumentException("Column can't be null");
+        }
+        if (this.rows == 0 && this.cols == 0) {
+            if (column.length < 1) {
+                throw new IllegalArgumentException("Invalid input, matrices must have a positive size");
+            }
+            growRows(column.length);
+            for (int i = 0; i < column.length; i++) {
+                this.data[i] = new double[colCapacity];
+            }
+            this.rows = column.length;
+        } else if (column.length != this.rows) {
+            throw new IllegalArgumentException("Column length must be equal to the number of rows");
+        }
+        detachData();
+        growCols(this.cols + 1);
+        for (int i = 0; i < this.rows; i++) {
+            this.data[i][this.cols] = column[i];
+        }
+        this.cols++;
+    }
+
+    public void ensureCapacity(int rowCapacity, int colCapacity) {
+        if (rowCapacity < 0 || colCapacity < 0) {
+            throw new IllegalArgumentException("Capacity can't be negative");
+        }
+        detachData();
+        if (rowCapacity > this.data.length) {
+            this.data = Arrays.copyOf(this.data, rowCapacity);
+        }
+        if (colCapacity > this.colCapacity) {
+            reallocateRows(colCapacity);
+        }
+    }
+
+    public void trimToSize() {
+        if (this.data.length > this.rows) {
+            this.data = Arrays.copyOf(this.data, this.rows);
+        }
+        if (this.colCapacity > this.cols) {
+            reallocateRows(this.cols);
+        }
     }
 
     public double get(int i, int j) {
@@ -117,6 +219,112 @@ public class Matrix {
         data[i][j] = value;
     }
 
+    public double[] getRow(int i) {
+        double[] row = new double[cols];
+        getRow(i, row, 0);
+        return row;
+    }
+
+    public void getRow(int i, double[] dest, int offset) {
+        checkRow(i);
+        checkNotNull(dest, "Array");
+        Objects.checkFromIndexSize(offset, cols, dest.length);
+        System.arraycopy(data[i], 0, dest, offset, cols);
+    }
+
+    public void setRow(int i, double[] src) {
+        setRow(i, src, 0);
+    }
+
+    public void setRow(int i, double[] src, int offset) {
+        checkRow(i);
+        checkNotNull(src, "Array");
+        Objects.checkFromIndexSize(offset, cols, src.length);
+        System.arraycopy(src, offset, data[i], 0, cols);
+    }
+
+    public double[] getColumn(int j) {
+        double[] column = new double[rows];
+        getColumn(j, column, 0);
+        return column;
+    }
+
+    public void getColumn(int j, double[] dest, int offset) {
+        checkColumn(j);
+        checkNotNull(dest, "Array");
+        Objects.checkFromIndexSize(offset, rows, dest.length);
+        for (int i = 0; i < rows; i++) {
+            dest[offset + i] = data[i][j];
+        }
+    }
+
+    public void setColumn(int j, double[] src) {
+        setColumn(j, src, 0);
+    }
+
+    public void setColumn(int j, double[] src, int offset) {
+        checkColumn(j);
+        checkNotNull(src, "Array");
+        Objects.checkFromIndexSize(offset, rows, src.length);
+        for (int i = 0; i < rows; i++) {
+            data[i][j] = src[offset + i];
+        }
+    }
+
+    // Writes the block row by row starting at the buffer position and advances the position
+    public void getBlock(int row, int col, int blockRows, int blockCols, DoubleBuffer dest) {
+        checkBlock(row, col, blockRows, blockCols);
+        checkNotNull(dest, "Buffer");
+        if (dest.remaining() < (long) blockRows * blockCols) {
+            throw new BufferOverflowException();
+        }
+        for (int i = row; i < row + blockRows; i++) {
+            dest.put(data[i], col, blockCols);
+        }
+    }
+
+    // Reads the block row by row starting at the buffer position and advances the position
+    public void setBlock(int row, int col, int blockRows, int blockCols, DoubleBuffer src) {
+        checkBlock(row, col, blockRows, blockCols);
+        checkNotNull(src, "Buffer");
+        if (src.remaining() < (long) blockRows * blockCols) {
+            throw new BufferUnderflowException();
+        }
+        for (int i = row; i < row + blockRows; i++) {
+            src.get(data[i], col, blockCols);
+        }
+    }
+
+    public void forEach(MatrixEntryConsumer action) {
+        checkNotNull(action, "Action");
+        for (int i = 0; i < rows; i++) {
+            double[] row = data[i];
+            for (int j = 0; j < cols; j++) {
+                action.accept(i, j, row[j]);
+            }
+        }
+    }
+
+    public void replaceAll(DoubleUnaryOperator operator) {
+        checkNotNull(operator, "Operator");
+        for (int i = 0; i < rows; i++) {
+            double[] row = data[i];
+            for (int j = 0; j < cols; j++) {
+                row[j] = operator.applyAsDouble(row[j]);
+            }
+        }
+    }
+
+    public void replaceAll(MatrixEntryOperator operator) {
+        checkNotNull(operator, "Operator");
+        for (int i = 0; i < rows; i++) {
+            double[] row = data[i];
+            for (int j = 0; j < cols; j++) {
+                row[j] = operator.apply(i, j, row[j]);
+            }
+        }
+    }
+
     public Matrix add(Matrix other) {
         checkSameShape(other);
         Matrix res = new Matrix(this.rows, this.cols);
@@ -150,27 +358,49 @@ public class Matrix {
     }
 
     public Matrix multiply(Matrix other) {
+        return multiply(other, tuningProfile);
+    }
+
+    Matrix multiply(Matrix other, TuningProfile profile) {
         if (this.cols != other.rows) {
             throw new IllegalArgumentException("The number of columns of the first matrix is not equal to the number of rows of the second matrix");
         }
         Matrix res = new Matrix(this.rows, other.cols);
-        for (int i = 0; i < this.rows; i++) {
-            for (int j = 0; j < other.cols; j++) {
-                double sum = 0.0;
-                for (int k = 0; k < this.cols; k++) {
-                    sum += this.data[i][k] * other.data[k][j];
-                }
-                res.data[i][j] = sum;
-            }
-        }
+        int tile = profile.getMultiplyTileSize();
+        boolean parallel = (long) this.rows * this.cols * other.cols >= profile.getParallelThreshold();
+        // the tile only blocks k and j for the cache, parallel work is split into enough row chunks for every thread
+        int chunk = tile;
+        if (parallel) {
+            int tasks = PARALLEL_TASKS_PER_THREAD * ForkJoinPool.getCommonPoolParallelism();
+            chunk = Math.max(1, Math.min(tile, (this.rows + tasks - 1) / tasks));
+        }
+        int rowChunk = chunk;
+        int chunks = (this.rows + rowChunk - 1) / rowChunk;
+        IntStream blocks = IntStream.range(0, chunks);
+        if (parallel) {
+            blocks = blocks.parallel();
+        }
+        blocks.forEach(block -> multiplyRows(other, res, block * rowChunk, Math.min(this.rows, (block + 1) * rowChunk), tile));
         return res;
     }
 
     public Matrix transpose() {
+        return transpose(tuningProfile);
+    }
+
+    Matrix transpose(TuningProfile profile) {
         Matrix t = new Matrix(this.cols, this.rows);
-        for (int i = 0; i < this.rows; i++) {
-            for (int j = 0; j < this.cols; j++) {
-                t.data[j][i] = this.data[i][j];
+        int tile = profile.getTransposeTileSize();
+        for (int ii = 0; ii < this.rows; ii += tile) {
+            int iEnd = Math.min(this.rows, ii + tile);
+            for (int jj = 0; jj < this.cols; jj += tile) {
+                int jEnd = Math.min(this.cols, jj + tile);
+                for (int i = ii; i < iEnd; i++) {
+                    double[] row = this.data[i];
+                    for (int j = jj; j < jEnd; j++) {
+                        t.data[j][i] = row[j];
+                    }
+                }
             }
         }
         return t;
@@ -250,6 +480,30 @@ public class Matrix {
         return cofactorsT.multiply(1.0 / determinant);
     }
 
+    public CholeskyDecomposition cholesky() {
+        checkNotEmpty();
+        if (this.rows != this.cols) {
+            throw new IllegalStateException("The matrix is not square");
+        }
+        return new CholeskyDecomposition(copyData());
+    }
+
+    public QRDecomposition qr() {
+        checkNotEmpty();
+        if (this.rows < this.cols) {
+            throw new IllegalStateException("The matrix must have at least as many rows as columns");
+        }
+        return new QRDecomposition(copyData());
+    }
+
+    public Matrix solveLeastSquares(Matrix b) {
+        checkOnExist(b);
+        if (b.rows != this.rows) {
+            throw new IllegalArgumentException("The number of rows of the right-hand side is not equal to the number of rows of the matrix");
+        }
+        return qr().solve(b);
+    }
+
     public StringWriter saveToText() throws IOException {
         StringWriter stringWriter = new StringWriter();
         BufferedWriter bufferedWriter = new BufferedWriter(stringWriter);
@@ -364,12 +618,106 @@ public class Matrix {
         return result;
     }
 
+    // k runs in ascending order for every element, so the sums match the plain triple loop exactly
+    private void multiplyRows(Matrix other, Matrix res, int fromRow, int toRow, int tile) {
+        for (int kk = 0; kk < this.cols; kk += tile) {
+            int kEnd = Math.min(this.cols, kk + tile);
+            for (int jj = 0; jj < other.cols; jj += tile) {
+                int jEnd = Math.min(other.cols, jj + tile);
+                for (int i = fromRow; i < toRow; i++) {
+                    double[] a = this.data[i];
+                    double[] c = res.data[i];
+                    for (int k = kk; k < kEnd; k++) {
+                        double aik = a[k];
+                        double[] b = other.data[k];
+                        for (int j = jj; j < jEnd; j++) {
+                            c[j] += aik * b[j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private double[][] copyData() {
+        double[][] result = new double[rows][];
+        for (int i = 0; i < rows; i++) {
+            result[i] = Arrays.copyOf(data[i], cols);
+        }
+        return result;
+    }
+
+    private void detachData() {
+        if (sharedData) {
+            double[][] copy = new double[data.length][];
+            for (int i = 0; i < rows; i++) {
+                copy[i] = data[i].clone();
+            }
+            data = copy;
+            sharedData = false;
+        }
+    }
+
+    private void growRows(int minRows) {
+        if (minRows > data.length) {
+            data = Arrays.copyOf(data, grownCapacity(data.length, minRows));
+        }
+    }
+
+    private void growCols(int minCols) {
+        if (minCols > colCapacity) {
+            reallocateRows(grownCapacity(colCapacity, minCols));
+        }
+    }
+
+    private void reallocateRows(int newColCapacity) {
+        for (int i = 0; i < rows; i++) {
+            data[i] = Arrays.copyOf(data[i], newColCapacity);
+        }
+        colCapacity = newColCapacity;
+    }
+
+    private static int grownCapacity(int current, int needed) {
+        int grown = current + (current >> 1);
+        return grown > needed ? grown : needed;
+    }
+
     private void checkIndex(int i, int j) {
         if (i < 0 || j < 0 || i >= rows || j >= cols) {
             throw new IndexOutOfBoundsException("Matrix index out of range: (" + i + ", " + j + ") for size (" + rows + ", " + cols + ")");
         }
     }
 
+    private void checkRow(int i) {
+        if (i < 0 || i >= rows) {
+            throw new IndexOutOfBoundsException("Matrix row out of range: " + i + " for size (" + rows + ", " + cols + ")");
+        }
+    }
+
+    private void checkColumn(int j) {
+        if (j < 0 || j >= cols) {
+            throw new IndexOutOfBoundsException("Matrix column out of range: " + j + " for size (" + rows + ", " + cols + ")");
+        }
+    }
+
+    private void checkBlock(int row, int col, int blockRows, int blockCols) {
+        if (row < 0 || col < 0 || blockRows < 0 || blockCols < 0 || row > rows - blockRows || col > cols - blockCols) {
+            throw new IndexOutOfBoundsException("Matrix block out of range: (" + row + ", " + col + ") of size (" + blockRows + ", " + blockCols + ") for size (" + rows + ", " + cols + ")");
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (rows == 0 || cols == 0) {
+            throw new IllegalStateException("The matrix is empty");
+        }
+    }
+
+    private static void checkNotNull(Object value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is null");
+        }
+    }
+
     private void checkOnExist(Matrix other) {
         if (other == null) {
             throw new IllegalArgumentException("Other matrix is null");
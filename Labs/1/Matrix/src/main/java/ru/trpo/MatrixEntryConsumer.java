@@ -0,0 +1,7 @@
+package ru.trpo;
+
+@FunctionalInterface
+public interface MatrixEntryConsumer {
+
+    void accept(int i, int j, double value);
+}
@@ -0,0 +1,7 @@
+package ru.trpo;
+
+@FunctionalInterface
+public interface MatrixEntryOperator {
+
+    double apply(int i, int j, double value);
+}
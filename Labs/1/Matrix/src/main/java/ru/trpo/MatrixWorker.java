@@ -0,0 +1,112 @@
+package ru.trpo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+
+public class MatrixWorker implements Closeable {
+
+    static final int CLOSE = 0;
+    static final int MULTIPLY = 1;
+    static final int OK = 0;
+    static final int ERROR = 1;
+
+    private final ServerSocket serverSocket;
+
+    public MatrixWorker(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    public MatrixWorker(InetAddress address, int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, address);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Accepts connections until the worker is closed, every connection is served by its own thread
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            Thread thread = new Thread(() -> handle(socket), "matrix-worker-" + socket.getPort());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    // One block of the result: the row panel of A times the column panel of B
+    Matrix compute(Matrix a, Matrix b) {
+        return a.multiply(b);
+    }
+
+    private void handle(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (true) {
+                int command = in.readInt();
+                if (command != MULTIPLY) {
+                    return;
+                }
+                Matrix a;
+                Matrix b;
+                try {
+                    a = Matrix.loadFromBinary(in);
+                    b = Matrix.loadFromBinary(in);
+                } catch (IllegalArgumentException e) {
+                    // the rest of the stream can't be trusted, report and drop the connection
+                    out.writeInt(ERROR);
+                    out.writeUTF("Malformed block: " + e.getMessage());
+                    out.flush();
+                    return;
+                }
+                Matrix c;
+                try {
+                    c = compute(a, b);
+                } catch (IllegalArgumentException e) {
+                    out.writeInt(ERROR);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                    out.flush();
+                    continue;
+                }
+                out.writeInt(OK);
+                c.saveToBinary().writeTo(out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the client has gone away or the connection broke, the client retries the block elsewhere
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        InetAddress address = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+        try (MatrixWorker worker = new MatrixWorker(address, port)) {
+            System.out.println("LISTENING " + worker.getPort());
+            System.out.flush();
+            worker.serve();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package ru.trpo;
+
+import java.util.stream.IntStream;
+
+public class QRDecomposition {
+
+    private static final double EPS = 1e-7;
+    private static final int BLOCK_SIZE = 32;
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final int m;
+    private final int n;
+    // R above the diagonal (diagonal included), Householder vectors below it with an implicit unit leading entry
+    private final double[][] qr;
+    private final double[] tau;
+
+    // Factors the given array in place, the array must have at least as many rows as columns
+    QRDecomposition(double[][] a) {
+        this.m = a.length;
+        this.n = a[0].length;
+        if (m < n) {
+            throw new IllegalStateException("The matrix must have at least as many rows as columns");
+        }
+        this.qr = a;
+        this.tau = new double[n];
+        factorize();
+    }
+
+    public Matrix getR() {
+        double[][] r = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(qr[i], i, r[i], i, n - i);
+        }
+        return new Matrix(r);
+    }
+
+    public Matrix getQ() {
+        double[][] q = new double[m][n];
+        for (int i = 0; i < n; i++) {
+            q[i][i] = 1.0;
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            applyReflector(k, q, k, n);
+        }
+        return new Matrix(q);
+    }
+
+    public boolean isFullRank() {
+        double max = 0.0;
+        for (int k = 0; k < n; k++) {
+            max = Math.max(max, Math.abs(qr[k][k]));
+        }
+        for (int k = 0; k < n; k++) {
+            if (Math.abs(qr[k][k]) <= EPS * max) {
+                return false;
+            }
+        }
+        return max > 0.0;
+    }
+
+    public Matrix solve(Matrix b) {
+        if (b == null) {
+            throw new IllegalArgumentException("Other matrix is null");
+        }
+        if (b.getRows() != m) {
+            throw new IllegalArgumentException("The number of rows of the right-hand side must be " + m);
+        }
+        if (!isFullRank()) {
+            throw new IllegalStateException("The matrix is rank deficient");
+        }
+        int nrhs = b.getCols();
+        double[][] y = new double[m][nrhs];
+        for (int i = 0; i < m; i++) {
+            b.getRow(i, y[i], 0);
+        }
+        for (int k = 0; k < n; k++) {
+            applyReflector(k, y, 0, nrhs);
+        }
+        // R x = (Q^T b)[0..n)
+        double[][] x = new double[n][];
+        for (int i = n - 1; i >= 0; i--) {
+            double[] xi = y[i];
+            for (int k = i + 1; k < n; k++) {
+                double rik = qr[i][k];
+                double[] xk = x[k];
+                for (int j = 0; j < nrhs; j++) {
+                    xi[j] -= rik * xk[j];
+                }
+            }
+            double d = qr[i][i];
+            for (int j = 0; j < nrhs; j++) {
+                xi[j] /= d;
+            }
+            x[i] = xi;
+        }
+        return new Matrix(x);
+    }
+
+    private void factorize() {
+        for (int k0 = 0; k0 < n; k0 += BLOCK_SIZE) {
+            int nb = Math.min(BLOCK_SIZE, n - k0);
+            for (int k = k0; k < k0 + nb; k++) {
+                makeReflector(k);
+                applyReflector(k, qr, k + 1, k0 + nb);
+            }
+            if (k0 + nb < n) {
+                applyBlockReflector(k0, nb);
+            }
+        }
+    }
+
+    private void makeReflector(int k) {
+        double alpha = qr[k][k];
+        double sumSquares = 0.0;
+        for (int i = k + 1; i < m; i++) {
+            sumSquares += qr[i][k] * qr[i][k];
+        }
+        if (sumSquares == 0.0) {
+            tau[k] = 0.0;
+            return;
+        }
+        double beta = -Math.copySign(Math.sqrt(alpha * alpha + sumSquares), alpha);
+        tau[k] = (beta - alpha) / beta;
+        double scale = 1.0 / (alpha - beta);
+        for (int i = k + 1; i < m; i++) {
+            qr[i][k] *= scale;
+        }
+        qr[k][k] = beta;
+    }
+
+    // Applies H_k = I - tau_k v_k v_k^T to columns [from, to) of target
+    private void applyReflector(int k, double[][] target, int from, int to) {
+        double t = tau[k];
+        if (t == 0.0 || from >= to) {
+            return;
+        }
+        int width = to - from;
+        double[] w = new double[width];
+        System.arraycopy(target[k], from, w, 0, width);
+        for (int i = k + 1; i < m; i++) {
+            double vi = qr[i][k];
+            double[] ti = target[i];
+            for (int j = 0; j < width; j++) {
+                w[j] += vi * ti[from + j];
+            }
+        }
+        for (int j = 0; j < width; j++) {
+            w[j] *= t;
+            target[k][from + j] -= w[j];
+        }
+        for (int i = k + 1; i < m; i++) {
+            double vi = qr[i][k];
+            double[] ti = target[i];
+            for (int j = 0; j < width; j++) {
+                ti[from + j] -= vi * w[j];
+            }
+        }
+    }
+
+    // Applies (I - V T V^T)^T = H_{k0+nb-1} ... H_{k0} to the trailing columns [k0 + nb, n)
+    private void applyBlockReflector(int k0, int nb) {
+        double[][] t = buildT(k0, nb);
+        int first = k0 + nb;
+        int blocks = (n - first + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream panels = IntStream.range(0, blocks);
+        if ((long) (m - k0) * (n - first) >= (long) PARALLEL_THRESHOLD * PARALLEL_THRESHOLD) {
+            panels = panels.parallel();
+        }
+        panels.forEach(block -> {
+            int from = first + block * BLOCK_SIZE;
+            int width = Math.min(BLOCK_SIZE, n - from);
+            // W = V^T C
+            double[][] w = new double[nb][width];
+            for (int p = 0; p < nb; p++) {
+                int row = k0 + p;
+                System.arraycopy(qr[row], from, w[p], 0, width);
+                for (int i = row + 1; i < m; i++) {
+                    double v = qr[i][row];
+                    double[] ci = qr[i];
+                    double[] wp = w[p];
+                    for (int j = 0; j < width; j++) {
+                        wp[j] += v * ci[from + j];
+                    }
+                }
+            }
+            // W = T^T W
+            for (int p = nb - 1; p >= 0; p--) {
+                double[] wp = w[p];
+                for (int j = 0; j < width; j++) {
+                    double sum = 0.0;
+                    for (int q = 0; q <= p; q++) {
+                        sum += t[q][p] * w[q][j];
+                    }
+                    wp[j] = sum;
+                }
+            }
+            // C = C - V W
+            for (int i = k0; i < m; i++) {
+                double[] ci = qr[i];
+                int last = Math.min(i - k0, nb - 1);
+                for (int p = 0; p <= last; p++) {
+                    double v = (i == k0 + p) ? 1.0 : qr[i][k0 + p];
+                    double[] wp = w[p];
+                    for (int j = 0; j < width; j++) {
+                        ci[from + j] -= v * wp[j];
+                    }
+                }
+            }
+        });
+    }
+
+    // Upper triangular T such that H_{k0} ... H_{k0+nb-1} = I - V T V^T
+    private double[][] buildT(int k0, int nb) {
+        double[][] t = new double[nb][nb];
+        for (int p = 0; p < nb; p++) {
+            int col = k0 + p;
+            double tp = tau[col];
+            t[p][p] = tp;
+            if (tp == 0.0) {
+                continue;
+            }
+            double[] z = new double[p];
+            for (int q = 0; q < p; q++) {
+                int qc = k0 + q;
+                double dot = qr[col][qc];
+                for (int i = col + 1; i < m; i++) {
+                    dot += qr[i][qc] * qr[i][col];
+                }
+                z[q] = -tp * dot;
+            }
+            for (int q = 0; q < p; q++) {
+                double sum = 0.0;
+                for (int r = q; r < p; r++) {
+                    sum += t[q][r] * z[r];
+                }
+                t[q][p] = sum;
+            }
+        }
+        return t;
+    }
+}
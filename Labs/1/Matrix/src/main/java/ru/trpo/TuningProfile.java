@@ -0,0 +1,89 @@
+package ru.trpo;
+
+import java.util.Objects;
+import java.util.Properties;
+
+public final class TuningProfile {
+
+    public static final TuningProfile DEFAULT = new TuningProfile(64, 1L << 21, 32);
+
+    private static final String MULTIPLY_TILE_SIZE = "multiply.tileSize";
+    private static final String PARALLEL_THRESHOLD = "multiply.parallelThreshold";
+    private static final String TRANSPOSE_TILE_SIZE = "transpose.tileSize";
+
+    private final int multiplyTileSize;
+    private final long parallelThreshold;
+    private final int transposeTileSize;
+
+    public TuningProfile(int multiplyTileSize, long parallelThreshold, int transposeTileSize) {
+        if (multiplyTileSize < 1 || transposeTileSize < 1) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Parallel threshold can't be negative");
+        }
+        this.multiplyTileSize = multiplyTileSize;
+        this.parallelThreshold = parallelThreshold;
+        this.transposeTileSize = transposeTileSize;
+    }
+
+    public int getMultiplyTileSize() {
+        return multiplyTileSize;
+    }
+
+    // Number of multiply-add operations (rows * inner * cols) from which multiply runs in parallel
+    public long getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public int getTransposeTileSize() {
+        return transposeTileSize;
+    }
+
+    Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(MULTIPLY_TILE_SIZE, Integer.toString(multiplyTileSize));
+        properties.setProperty(PARALLEL_THRESHOLD, Long.toString(parallelThreshold));
+        properties.setProperty(TRANSPOSE_TILE_SIZE, Integer.toString(transposeTileSize));
+        return properties;
+    }
+
+    static TuningProfile fromProperties(Properties properties) {
+        String multiplyTile = properties.getProperty(MULTIPLY_TILE_SIZE);
+        String threshold = properties.getProperty(PARALLEL_THRESHOLD);
+        String transposeTile = properties.getProperty(TRANSPOSE_TILE_SIZE);
+        if (multiplyTile == null || threshold == null || transposeTile == null) {
+            throw new IllegalArgumentException("Tuning profile is incomplete");
+        }
+        return new TuningProfile(
+                Integer.parseInt(multiplyTile.trim()),
+                Long.parseLong(threshold.trim()),
+                Integer.parseInt(transposeTile.trim())
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "TuningProfile{multiplyTileSize=" + multiplyTileSize
+                + ", parallelThreshold=" + parallelThreshold
+                + ", transposeTileSize=" + transposeTileSize + "}";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TuningProfile other)) {
+            return false;
+        }
+        return multiplyTileSize == other.multiplyTileSize
+                && parallelThreshold == other.parallelThreshold
+                && transposeTileSize == other.transposeTileSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(multiplyTileSize, parallelThreshold, transposeTileSize);
+    }
+}
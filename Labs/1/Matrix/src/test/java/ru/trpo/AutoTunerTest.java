@@ -0,0 +1,67 @@
+package ru.trpo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AutoTunerTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    public void resetProfile() {
+        Matrix.setTuningProfile(TuningProfile.DEFAULT);
+    }
+
+    @Test
+    public void testLoadOrTunePersistsProfile() throws IOException {
+        TuningProfile tuned = AutoTuner.loadOrTune(directory);
+        Path file = AutoTuner.profileFile(directory);
+        assertTrue(Files.isRegularFile(file));
+        assertEquals(tuned, Matrix.getTuningProfile());
+
+        // a saved profile is loaded as is instead of being re-tuned
+        TuningProfile saved = new TuningProfile(8, 12345, 4);
+        AutoTuner.save(saved, file);
+        assertEquals(saved, AutoTuner.loadOrTune(directory));
+        assertEquals(saved, Matrix.getTuningProfile());
+    }
+
+    @Test
+    public void testDamagedProfileIsIgnored() throws IOException {
+        Path file = AutoTuner.profileFile(directory);
+        Files.writeString(file, "multiply.tileSize=abc\n");
+        assertNull(AutoTuner.load(file));
+        Files.writeString(file, "multiply.tileSize=16\n");
+        assertNull(AutoTuner.load(file));
+        // malformed unicode escape
+        Files.writeString(file, "multiply.tileSize=\\u00zz\n");
+        assertNull(AutoTuner.load(file));
+        // invalid UTF-8
+        Files.write(file, new byte[]{'a', '=', (byte) 0xC3, (byte) 0x28, '\n'});
+        assertNull(AutoTuner.load(file));
+        assertNull(AutoTuner.load(directory.resolve("missing.properties")));
+    }
+
+    @Test
+    public void testProfileFileIsKeyedByHost() {
+        String name = AutoTuner.profileFile(directory).getFileName().toString();
+        assertTrue(name.endsWith("-" + Runtime.getRuntime().availableProcessors() + ".properties"));
+        assertTrue(name.matches("[A-Za-z0-9_.-]+"));
+    }
+
+    @Test
+    public void testWrongProfile() {
+        assertThrows(IllegalArgumentException.class, () -> new TuningProfile(0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TuningProfile(1, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> Matrix.setTuningProfile(null));
+    }
+}
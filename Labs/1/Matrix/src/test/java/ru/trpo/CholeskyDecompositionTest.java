@@ -0,0 +1,75 @@
+package ru.trpo;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CholeskyDecompositionTest {
+
+    private Matrix createSpdMatrix() {
+        return new Matrix(
+                new double[][]{
+                        {4, 12, -16},
+                        {12, 37, -43},
+                        {-16, -43, 98}
+                }
+        );
+    }
+
+    private Matrix createRandomSpdMatrix(int n) {
+        Random random = new Random(42);
+        Matrix a = new Matrix(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a.set(i, j, random.nextDouble() - 0.5);
+            }
+        }
+        Matrix spd = a.multiply(a.transpose());
+        for (int i = 0; i < n; i++) {
+            spd.set(i, i, spd.get(i, i) + n);
+        }
+        return spd;
+    }
+
+    @Test
+    public void testFactor() {
+        Matrix matrix = createSpdMatrix();
+        Matrix l = matrix.cholesky().getL();
+        Matrix expected = new Matrix(
+                new double[][]{
+                        {2, 0, 0},
+                        {6, 1, 0},
+                        {-8, 5, 3}
+                }
+        );
+        assertEquals(expected, l);
+        assertEquals(matrix, l.multiply(l.transpose()));
+        assertEquals(matrix.determinant(), matrix.cholesky().determinant(), 1e-7);
+    }
+
+    @Test
+    public void testSolve() {
+        Matrix matrix = createSpdMatrix();
+        Matrix b = new Matrix(new double[][]{{1, 0}, {2, 1}, {3, 0}});
+        Matrix x = matrix.cholesky().solve(b);
+        assertEquals(b, matrix.multiply(x));
+    }
+
+    @Test
+    public void testLargeMatrix() {
+        Matrix matrix = createRandomSpdMatrix(300);
+        Matrix l = matrix.cholesky().getL();
+        assertEquals(matrix, l.multiply(l.transpose()));
+    }
+
+    @Test
+    public void testNotSpd() {
+        assertThrows(IllegalStateException.class, () -> new Matrix(2, 3).cholesky());
+        assertThrows(IllegalStateException.class, () -> new Matrix().cholesky());
+        Matrix nonSymmetric = new Matrix(new double[][]{{4, 1}, {2, 3}});
+        assertThrows(IllegalStateException.class, nonSymmetric::cholesky);
+        Matrix indefinite = new Matrix(new double[][]{{1, 2}, {2, 1}});
+        assertThrows(IllegalStateException.class, indefinite::cholesky);
+    }
+}
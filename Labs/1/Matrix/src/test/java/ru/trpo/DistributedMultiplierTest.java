@@ -0,0 +1,173 @@
+package ru.trpo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DistributedMultiplierTest {
+
+    private final List<Process> processes = new ArrayList<>();
+    private final List<AutoCloseable> resources = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    public void stopWorkers() throws Exception {
+        for (Process process : processes) {
+            process.destroyForcibly();
+        }
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    private InetSocketAddress startWorker() throws IOException, URISyntaxException {
+        return startWorker(MatrixWorker.class.getName(), "0");
+    }
+
+    // The worker process halts on the block after the first failAfter ones
+    private InetSocketAddress startFailingWorker(int failAfter) throws IOException, URISyntaxException {
+        return startWorker(FailingMatrixWorker.class.getName(), Integer.toString(failAfter));
+    }
+
+    private InetSocketAddress startWorker(String mainClass, String argument) throws IOException, URISyntaxException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        // main and test classes may live in different directories
+        Set<String> classPath = new LinkedHashSet<>();
+        for (Class<?> type : List.of(MatrixWorker.class, FailingMatrixWorker.class)) {
+            classPath.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+        }
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", String.join(File.pathSeparator, classPath), mainClass, argument);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+        processes.add(process);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        assertTrue(line != null && line.startsWith("LISTENING "), "Worker did not start: " + line);
+        int port = Integer.parseInt(line.substring("LISTENING ".length()).trim());
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+
+    // Never answers its first connection, later connections are forwarded to the target worker
+    private InetSocketAddress stallFirstConnection(InetSocketAddress target) throws IOException {
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        resources.add(server);
+        startDaemon(() -> {
+            try {
+                resources.add(server.accept());
+                while (true) {
+                    Socket client = server.accept();
+                    Socket worker = new Socket(target.getAddress(), target.getPort());
+                    resources.add(client);
+                    resources.add(worker);
+                    startDaemon(() -> pipe(client.getInputStream(), worker.getOutputStream()));
+                    startDaemon(() -> pipe(worker.getInputStream(), client.getOutputStream()));
+                }
+            } catch (IOException e) {
+                // the proxy is closed after the test
+            }
+        });
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort());
+    }
+
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    private void startDaemon(IoTask task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (IOException e) {
+                // the connection is gone
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void pipe(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+
+    private InetSocketAddress unusedAddress() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), socket.getLocalPort());
+        }
+    }
+
+    private Matrix createRandomMatrix(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        Matrix matrix = new Matrix(rows, cols);
+        matrix.replaceAll(value -> random.nextDouble() - 0.5);
+        return matrix;
+    }
+
+    @Test
+    public void testMultiply() throws Exception {
+        List<InetSocketAddress> workers = List.of(startWorker(), startWorker(), startWorker());
+        Matrix a = createRandomMatrix(50, 40, 1);
+        Matrix b = createRandomMatrix(40, 30, 2);
+        Matrix result = new DistributedMultiplier(workers, 16).multiply(a, b);
+        assertEquals(a.multiply(b), result);
+    }
+
+    @Test
+    public void testLostWorkersAreRetried() throws Exception {
+        // one worker crashes after three blocks and one is never reachable
+        List<InetSocketAddress> workers = List.of(startFailingWorker(3), startWorker(), unusedAddress());
+        Matrix a = createRandomMatrix(45, 33, 3);
+        Matrix b = createRandomMatrix(33, 28, 4);
+        Matrix result = new DistributedMultiplier(workers, 8).multiply(a, b);
+        assertEquals(a.multiply(b), result);
+    }
+
+    @Test
+    public void testTimedOutWorkerIsReconnected() throws Exception {
+        InetSocketAddress worker = stallFirstConnection(startWorker());
+        Matrix a = createRandomMatrix(20, 20, 6);
+        Matrix b = createRandomMatrix(20, 20, 7);
+        Matrix result = new DistributedMultiplier(List.of(worker), 8, 3, 500).multiply(a, b);
+        assertEquals(a.multiply(b), result);
+    }
+
+    @Test
+    public void testAllWorkersLost() throws Exception {
+        List<InetSocketAddress> workers = List.of(startFailingWorker(0), unusedAddress());
+        Matrix a = createRandomMatrix(10, 10, 5);
+        DistributedMultiplier multiplier = new DistributedMultiplier(workers, 4);
+        assertThrows(IOException.class, () -> multiplier.multiply(a, a));
+    }
+
+    @Test
+    public void testWrongInput() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new DistributedMultiplier(List.of(), 4));
+        assertThrows(IllegalArgumentException.class, () -> new DistributedMultiplier(List.of(unusedAddress()), 4, 3, 0));
+        DistributedMultiplier multiplier = new DistributedMultiplier(List.of(unusedAddress()), 4);
+        assertThrows(IllegalArgumentException.class, () -> multiplier.multiply(new Matrix(2, 3), new Matrix(2, 3)));
+    }
+}
@@ -0,0 +1,33 @@
+package ru.trpo;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Worker process for the tests that halts on the block after the first failAfter ones
+public class FailingMatrixWorker extends MatrixWorker {
+
+    private final int failAfter;
+    private final AtomicInteger computed = new AtomicInteger();
+
+    private FailingMatrixWorker(int failAfter) throws IOException {
+        super(InetAddress.getLoopbackAddress(), 0);
+        this.failAfter = failAfter;
+    }
+
+    @Override
+    Matrix compute(Matrix a, Matrix b) {
+        if (computed.incrementAndGet() > failAfter) {
+            Runtime.getRuntime().halt(1);
+        }
+        return super.compute(a, b);
+    }
+
+    public static void main(String[] args) throws IOException {
+        try (MatrixWorker worker = new FailingMatrixWorker(Integer.parseInt(args[0]))) {
+            System.out.println("LISTENING " + worker.getPort());
+            System.out.flush();
+            worker.serve();
+        }
+    }
+}
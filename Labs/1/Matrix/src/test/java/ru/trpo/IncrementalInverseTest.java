@@ -0,0 +1,142 @@
+package ru.trpo;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IncrementalInverseTest {
+
+    private Matrix createTestMatrix() {
+        return new Matrix(
+                new double[][]{
+                        {2, 5, 7},
+                        {6, 3, 4},
+                        {5, -2, -3}
+                }
+        );
+    }
+
+    @Test
+    public void testInitialState() {
+        Matrix matrix = createTestMatrix();
+        IncrementalInverse incremental = new IncrementalInverse(matrix);
+        assertEquals(matrix.inverse(), incremental.inverse());
+        assertEquals(-1.0, incremental.determinant(), 1e-10);
+        assertEquals(matrix, incremental.matrix());
+    }
+
+    @Test
+    public void testSetElement() {
+        Matrix matrix = createTestMatrix();
+        IncrementalInverse incremental = new IncrementalInverse(matrix);
+        incremental.set(1, 2, 10);
+        matrix.set(1, 2, 10);
+        assertEquals(matrix.inverse(), incremental.inverse());
+        assertEquals(matrix.determinant(), incremental.determinant(), 1e-10);
+    }
+
+    @Test
+    public void testSetRowAndColumn() {
+        Matrix matrix = createTestMatrix();
+        IncrementalInverse incremental = new IncrementalInverse(matrix);
+        incremental.setRow(0, new double[]{1, 2, 3});
+        incremental.setColumn(2, new double[]{4, -1, 8});
+        Matrix expected = new Matrix(
+                new double[][]{
+                        {1, 2, 4},
+                        {6, 3, -1},
+                        {5, -2, 8}
+                }
+        );
+        assertEquals(expected, incremental.matrix());
+        assertEquals(expected.inverse(), incremental.inverse());
+        assertEquals(expected.determinant(), incremental.determinant(), 1e-9);
+    }
+
+    @Test
+    public void testRankUpdate() {
+        Matrix matrix = createTestMatrix();
+        IncrementalInverse incremental = new IncrementalInverse(matrix);
+        Matrix u = new Matrix(new double[][]{{1, 0}, {0, 2}, {1, 1}});
+        Matrix v = new Matrix(new double[][]{{0, 1}, {1, 0}, {2, 1}});
+        incremental.rankUpdate(u, v);
+        Matrix expected = matrix.add(u.multiply(v.transpose()));
+        assertEquals(expected, incremental.matrix());
+        assertEquals(expected.inverse(), incremental.inverse());
+        assertEquals(expected.determinant(), incremental.determinant(), 1e-9);
+    }
+
+    @Test
+    public void testPeriodicRefactorization() {
+        Matrix matrix = createTestMatrix();
+        IncrementalInverse incremental = new IncrementalInverse(matrix, 2);
+        for (int step = 0; step < 5; step++) {
+            incremental.rankOneUpdate(new double[]{1, 0, 0}, new double[]{0.5, 0, 0});
+            matrix.set(0, 0, matrix.get(0, 0) + 0.5);
+            assertEquals(matrix.inverse(), incremental.inverse());
+            assertEquals(matrix.determinant(), incremental.determinant(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testSingularUpdate() {
+        Matrix matrix = new Matrix(new double[][]{{1, 0}, {0, 1}});
+        IncrementalInverse incremental = new IncrementalInverse(matrix);
+        assertThrows(IllegalStateException.class, () -> incremental.set(0, 0, 0));
+        assertEquals(matrix, incremental.matrix());
+        assertEquals(1.0, incremental.determinant(), 1e-10);
+    }
+
+    @Test
+    public void testSmallScaleMatrix() {
+        // 0.5 I is perfectly conditioned even though its determinant is about 9e-10
+        double[][] data = new double[30][30];
+        for (int i = 0; i < 30; i++) {
+            data[i][i] = 0.5;
+        }
+        IncrementalInverse incremental = new IncrementalInverse(new Matrix(data));
+        assertEquals(Math.pow(0.5, 30), incremental.determinant(), 1e-20);
+        assertEquals(30 * Math.log(0.5), incremental.logAbsDeterminant(), 1e-12);
+        assertEquals(2.0, incremental.inverse().get(7, 7), 1e-15);
+
+        incremental.set(3, 3, -0.25);
+        assertEquals(-4.0, incremental.inverse().get(3, 3), 1e-12);
+        assertEquals(-1, incremental.determinantSign());
+        assertEquals(-Math.pow(0.5, 31), incremental.determinant(), 1e-20);
+    }
+
+    @Test
+    public void testScaledUpdate() {
+        Matrix matrix = new Matrix(new double[][]{{0.01, 0, 0}, {0, 0.01, 0}, {0, 0, 0.01}});
+        IncrementalInverse incremental = new IncrementalInverse(matrix, 2);
+        // det drops to 1e-8, but the matrix stays well conditioned
+        incremental.set(0, 0, 1e-4);
+        incremental.set(1, 1, 0.02);
+        incremental.set(2, 2, 0.03);
+        Matrix expected = new Matrix(new double[][]{{1e-4, 0, 0}, {0, 0.02, 0}, {0, 0, 0.03}});
+        assertEquals(expected, incremental.matrix());
+        assertEquals(1e4, incremental.inverse().get(0, 0), 1e-8);
+        assertEquals(50, incremental.inverse().get(1, 1), 1e-10);
+        assertEquals(6e-8, incremental.determinant(), 1e-20);
+    }
+
+    @Test
+    public void testNearlySingularRankUpdate() {
+        IncrementalInverse incremental = new IncrementalInverse(createTestMatrix());
+        // adding -A e_0 e_0^T zeroes the first column
+        Matrix u = new Matrix(new double[][]{{-2}, {-6}, {-5}});
+        Matrix v = new Matrix(new double[][]{{1}, {0}, {0}});
+        assertThrows(IllegalStateException.class, () -> incremental.rankUpdate(u, v));
+        assertEquals(createTestMatrix(), incremental.matrix());
+        assertEquals(-1.0, incremental.determinant(), 1e-10);
+    }
+
+    @Test
+    public void testWrongInput() {
+        assertThrows(IllegalStateException.class, () -> new IncrementalInverse(new Matrix(2, 3)));
+        assertThrows(IllegalStateException.class, () -> new IncrementalInverse(new Matrix(2, 2)));
+        IncrementalInverse incremental = new IncrementalInverse(createTestMatrix());
+        assertThrows(IllegalArgumentException.class, () -> incremental.setRow(0, new double[]{1, 2}));
+        assertThrows(IndexOutOfBoundsException.class, () -> incremental.set(3, 0, 1));
+    }
+}
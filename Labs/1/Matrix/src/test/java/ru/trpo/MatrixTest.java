@@ -3,9 +3,15 @@ package ru.trpo;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.DoubleBuffer;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -60,6 +66,70 @@ public class MatrixTest {
         assertThrows(IndexOutOfBoundsException.class, () -> matrix.set(0, -1, 5.0));
     }
 
+    @Test
+    public void testRowAndColumnAccess() {
+        Matrix matrix = createTestMatrix();
+        assertArrayEquals(new double[]{6, 3, 4}, matrix.getRow(1), 1e-10);
+        assertArrayEquals(new double[]{5, 3, -2}, matrix.getColumn(1), 1e-10);
+
+        double[] buffer = new double[5];
+        matrix.getRow(2, buffer, 1);
+        assertArrayEquals(new double[]{0, 5, -2, -3, 0}, buffer, 1e-10);
+        matrix.getColumn(0, buffer, 2);
+        assertArrayEquals(new double[]{0, 5, 2, 6, 5}, buffer, 1e-10);
+
+        matrix.setRow(0, new double[]{9, 9, 1, 2, 3}, 2);
+        matrix.setColumn(2, new double[]{7, 8, 9});
+        assertArrayEquals(new double[]{1, 2, 7}, matrix.getRow(0), 1e-10);
+        assertArrayEquals(new double[]{7, 8, 9}, matrix.getColumn(2), 1e-10);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.getRow(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.getColumn(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.setRow(0, new double[]{1, 2}));
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.getColumn(0, new double[3], 1));
+        assertThrows(IllegalArgumentException.class, () -> matrix.getRow(0, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> matrix.setRow(0, null));
+        assertThrows(IllegalArgumentException.class, () -> matrix.getColumn(0, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> matrix.setColumn(0, null));
+    }
+
+    @Test
+    public void testBlockAccess() {
+        Matrix matrix = createTestMatrix();
+        DoubleBuffer buffer = DoubleBuffer.allocate(4);
+        matrix.getBlock(1, 1, 2, 2, buffer);
+        assertEquals(4, buffer.position());
+        assertArrayEquals(new double[]{3, 4, -2, -3}, buffer.array(), 1e-10);
+
+        buffer.flip();
+        Matrix target = new Matrix(3, 3);
+        target.setBlock(0, 0, 2, 2, buffer);
+        assertEquals(0, buffer.remaining());
+        assertEquals(3.0, target.get(0, 0), 1e-10);
+        assertEquals(-3.0, target.get(1, 1), 1e-10);
+        assertEquals(0.0, target.get(2, 2), 1e-10);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.getBlock(2, 2, 2, 1, DoubleBuffer.allocate(2)));
+        assertThrows(BufferOverflowException.class, () -> matrix.getBlock(0, 0, 2, 2, DoubleBuffer.allocate(3)));
+        assertThrows(BufferUnderflowException.class, () -> target.setBlock(0, 0, 2, 2, DoubleBuffer.allocate(3)));
+        assertThrows(IllegalArgumentException.class, () -> matrix.getBlock(0, 0, 1, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> target.setBlock(0, 0, 1, 1, null));
+    }
+
+    @Test
+    public void testForEachAndReplaceAll() {
+        Matrix matrix = createTestMatrix();
+        double[] sum = new double[1];
+        matrix.forEach((i, j, value) -> sum[0] += value * (i == j ? 1 : 0));
+        assertEquals(2.0, sum[0], 1e-10);
+
+        matrix.replaceAll(value -> value * 2);
+        assertEquals(createTestMatrix().multiply(2), matrix);
+
+        matrix.replaceAll((i, j, value) -> i == j ? 1 : 0);
+        assertEquals(new Matrix(new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}), matrix);
+    }
+
     @Test
     public void testResizeRowsUp() {
         Matrix matrix = createTestMatrix();
@@ -94,6 +164,80 @@ public class MatrixTest {
         assertEquals(3, matrix.getRows());
     }
 
+    @Test
+    public void testResizeDownThenUp() {
+        Matrix matrix = createTestMatrix();
+        matrix.resizeRows(2);
+        matrix.resizeCols(2);
+        matrix.resizeRows(3);
+        matrix.resizeCols(3);
+        assertEquals(2.0, matrix.get(0, 0), 1e-10);
+        assertEquals(3.0, matrix.get(1, 1), 1e-10);
+        assertEquals(0.0, matrix.get(0, 2), 1e-10);
+        assertEquals(0.0, matrix.get(2, 0), 1e-10);
+    }
+
+    @Test
+    public void testResizeDoesNotChangeSourceArray() {
+        double[][] source = {{1, 2}, {3, 4}};
+        double[] firstRow = source[0];
+
+        new Matrix(source).resizeRows(1);
+        new Matrix(source).resizeCols(1);
+        new Matrix(source).appendColumn(new double[]{5, 6});
+        new Matrix(source).appendRow(new double[]{5, 6});
+        new Matrix(source).ensureCapacity(4, 4);
+
+        assertEquals(2, source.length);
+        assertSame(firstRow, source[0]);
+        assertArrayEquals(new double[]{1, 2}, source[0], 1e-10);
+        assertArrayEquals(new double[]{3, 4}, source[1], 1e-10);
+    }
+
+    @Test
+    public void testAppendRow() {
+        Matrix matrix = new Matrix();
+        for (int i = 0; i < 100; i++) {
+            matrix.appendRow(new double[]{i, 2 * i});
+        }
+        assertEquals(100, matrix.getRows());
+        assertEquals(2, matrix.getCols());
+        assertEquals(99.0, matrix.get(99, 0), 1e-10);
+        assertEquals(198.0, matrix.get(99, 1), 1e-10);
+
+        Matrix expected = createTestMatrix();
+        Matrix appended = new Matrix(new double[][]{{2, 5, 7}});
+        appended.appendRow(new double[]{6, 3, 4});
+        appended.appendRow(new double[]{5, -2, -3});
+        assertEquals(expected, appended);
+        assertThrows(IllegalArgumentException.class, () -> appended.appendRow(new double[]{1, 2}));
+    }
+
+    @Test
+    public void testAppendColumn() {
+        Matrix matrix = new Matrix();
+        matrix.appendColumn(new double[]{2, 6, 5});
+        matrix.appendColumn(new double[]{5, 3, -2});
+        matrix.appendColumn(new double[]{7, 4, -3});
+        assertEquals(createTestMatrix(), matrix);
+        assertThrows(IllegalArgumentException.class, () -> matrix.appendColumn(new double[]{1}));
+    }
+
+    @Test
+    public void testCapacity() {
+        Matrix matrix = createTestMatrix();
+        matrix.ensureCapacity(10, 10);
+        matrix.appendRow(new double[]{1, 1, 1});
+        matrix.appendColumn(new double[]{1, 2, 3, 4});
+        assertEquals(4, matrix.getRows());
+        assertEquals(4, matrix.getCols());
+        assertEquals(4.0, matrix.get(3, 3), 1e-10);
+        matrix.trimToSize();
+        assertEquals(-3.0, matrix.get(2, 2), 1e-10);
+        assertEquals(matrix, matrix.copy());
+        assertThrows(IllegalArgumentException.class, () -> matrix.ensureCapacity(-1, 0));
+    }
+
     @Test
     public void testDeterminant() {
         Matrix matrix = createTestMatrix();
@@ -175,6 +319,56 @@ public class MatrixTest {
         assertThrows(IllegalArgumentException.class, () -> incompatible.multiply(matrix1));
     }
 
+    @Test
+    public void testTunedMultiplicationAndTranspose() {
+        Random random = new Random(11);
+        Matrix a = new Matrix(70, 50);
+        Matrix b = new Matrix(50, 90);
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < 90; j++) {
+                if (i < 70 && j < 50) {
+                    a.set(i, j, random.nextDouble() - 0.5);
+                }
+                b.set(i, j, random.nextDouble() - 0.5);
+            }
+        }
+        for (int i = 50; i < 70; i++) {
+            for (int j = 0; j < 50; j++) {
+                a.set(i, j, random.nextDouble() - 0.5);
+            }
+        }
+        Matrix expected = new Matrix(70, 90);
+        for (int i = 0; i < 70; i++) {
+            for (int j = 0; j < 90; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < 50; k++) {
+                    sum += a.get(i, k) * b.get(k, j);
+                }
+                expected.set(i, j, sum);
+            }
+        }
+        TuningProfile[] profiles = {
+                TuningProfile.DEFAULT,
+                new TuningProfile(1, Long.MAX_VALUE, 1),
+                new TuningProfile(7, 0, 13),
+                new TuningProfile(256, 0, 256)
+        };
+        for (TuningProfile profile : profiles) {
+            Matrix result = a.multiply(b, profile);
+            for (int i = 0; i < 70; i++) {
+                for (int j = 0; j < 90; j++) {
+                    assertEquals(expected.get(i, j), result.get(i, j), 0.0);
+                }
+            }
+            Matrix transposed = a.transpose(profile);
+            for (int i = 0; i < 70; i++) {
+                for (int j = 0; j < 50; j++) {
+                    assertEquals(a.get(i, j), transposed.get(j, i), 0.0);
+                }
+            }
+        }
+    }
+
     @Test
     public void testNumberMultiplication() {
         Matrix matrix1 = createTestMatrix();
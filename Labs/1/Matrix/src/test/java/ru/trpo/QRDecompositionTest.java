@@ -0,0 +1,69 @@
+package ru.trpo;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QRDecompositionTest {
+
+    private Matrix createRandomMatrix(int rows, int cols) {
+        Random random = new Random(7);
+        Matrix matrix = new Matrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                matrix.set(i, j, random.nextDouble() - 0.5);
+            }
+        }
+        return matrix;
+    }
+
+    @Test
+    public void testFactor() {
+        Matrix matrix = new Matrix(
+                new double[][]{
+                        {12, -51, 4},
+                        {6, 167, -68},
+                        {-4, 24, -41}
+                }
+        );
+        QRDecomposition qr = matrix.qr();
+        Matrix q = qr.getQ();
+        Matrix r = qr.getR();
+        assertEquals(matrix, q.multiply(r));
+        assertEquals(new Matrix(new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}), q.transpose().multiply(q));
+        assertEquals(0.0, r.get(1, 0), 1e-10);
+        assertEquals(0.0, r.get(2, 1), 1e-10);
+    }
+
+    @Test
+    public void testBlockedFactor() {
+        Matrix matrix = createRandomMatrix(120, 70);
+        QRDecomposition qr = matrix.qr();
+        assertEquals(matrix, qr.getQ().multiply(qr.getR()));
+    }
+
+    @Test
+    public void testSolveLeastSquares() {
+        // y = 1 + 2x fitted exactly
+        Matrix a = new Matrix(new double[][]{{1, 0}, {1, 1}, {1, 2}, {1, 3}});
+        Matrix b = new Matrix(new double[][]{{1}, {3}, {5}, {7}});
+        Matrix x = a.solveLeastSquares(b);
+        assertEquals(new Matrix(new double[][]{{1}, {2}}), x);
+
+        // the residual of a least-squares solution is orthogonal to the columns of A
+        Matrix noisy = new Matrix(new double[][]{{1}, {2}, {6}, {7}});
+        Matrix residual = noisy.subtract(a.multiply(a.solveLeastSquares(noisy)));
+        assertEquals(new Matrix(2, 1), a.transpose().multiply(residual));
+    }
+
+    @Test
+    public void testWrongInput() {
+        assertThrows(IllegalStateException.class, () -> new Matrix(2, 3).qr());
+        assertThrows(IllegalStateException.class, () -> new Matrix().qr());
+        assertThrows(IllegalStateException.class, () -> new Matrix().solveLeastSquares(new Matrix()));
+        Matrix a = new Matrix(new double[][]{{1, 2}, {2, 4}, {3, 6}});
+        assertThrows(IllegalStateException.class, () -> a.solveLeastSquares(new Matrix(3, 1)));
+        assertThrows(IllegalArgumentException.class, () -> a.solveLeastSquares(new Matrix(2, 1)));
+    }
+}